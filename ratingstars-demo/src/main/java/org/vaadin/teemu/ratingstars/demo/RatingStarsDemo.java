@@ -66,6 +66,7 @@ public class RatingStarsDemo extends UI {
     protected void init(final VaadinRequest request) {
         initWindowAndDescription();
         initDemoPanel();
+        this.mainLayout.addComponent(new StressTestPanel());
     }
 
     private void initWindowAndDescription() {
@@ -0,0 +1,171 @@
+package org.vaadin.teemu.ratingstars.demo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.vaadin.ui.Button;
+import com.vaadin.ui.CheckBox;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.CssLayout;
+import com.vaadin.ui.HorizontalLayout;
+import com.vaadin.ui.Label;
+import com.vaadin.ui.NativeSelect;
+import com.vaadin.ui.Panel;
+import com.vaadin.ui.VerticalLayout;
+import org.vaadin.teemu.ratingstars.RatingStars;
+import org.vaadin.teemu.ratingstars.RatingStarsDisplay;
+
+/**
+ * A panel rendering a large number of RatingStars components to reproduce
+ * heavy listing pages. Shows the server-side time spent building and
+ * updating the components together with the size of the resulting response
+ * and the time the browser needed to render it.
+ */
+public class StressTestPanel extends Panel {
+    private static final long serialVersionUID = -3208542627125315847L;
+
+    private static final List<Integer> COUNTS = Arrays.asList(100, 250, 500, 1000, 2500, 5000, 10000);
+
+    private static final List<Integer> MAX_VALUES = Arrays.asList(3, 5, 10);
+
+    private static final String[] CAPTIONS = { "Epic Fail", "Poor", "OK", "Good", "Excellent", "Great", "Superb",
+        "Amazing", "Outstanding", "Perfect" };
+
+    private static final String REPORT_FUNCTION = "ratingStarsStressReport";
+
+    /**
+     * Reports the render time and the size of the latest UIDL response once
+     * the browser has painted the changes.
+     */
+    private static final String REPORT_SCRIPT = "requestAnimationFrame(function() { setTimeout(function() {"
+        + " var entries = performance.getEntriesByType('resource').filter(function(e) { return e.name.indexOf('UIDL') >= 0; });"
+        + " var last = entries[entries.length - 1];"
+        + " performance.clearResourceTimings();"
+        + " " + StressTestPanel.REPORT_FUNCTION + "(last ? performance.now() - last.responseEnd : -1, last ? last.encodedBodySize : -1);"
+        + " }, 0); });";
+
+    private final List<Component> components = new ArrayList<>();
+
+    private final NativeSelect<Integer> countSelect = new NativeSelect<>("Components", StressTestPanel.COUNTS);
+    private final NativeSelect<Integer> maxValueSelect = new NativeSelect<>("Max value", StressTestPanel.MAX_VALUES);
+    private final CheckBox captionsCheckBox = new CheckBox("Captions");
+    private final CheckBox animatedCheckBox = new CheckBox("Animated");
+    private final CheckBox displayOnlyCheckBox = new CheckBox("Display only");
+
+    private final Label serverTimeLabel = new Label();
+    private final Label responseSizeLabel = new Label();
+    private final Label renderTimeLabel = new Label();
+
+    private final CssLayout starsLayout = new CssLayout();
+
+    /** Max value of the currently displayed components. */
+    private int maxValue;
+
+    public StressTestPanel() {
+        super("Stress test");
+
+        this.countSelect.setEmptySelectionAllowed(false);
+        this.countSelect.setValue(StressTestPanel.COUNTS.get(0));
+        this.maxValueSelect.setEmptySelectionAllowed(false);
+        this.maxValueSelect.setValue(5);
+        this.animatedCheckBox.setValue(true);
+
+        final Button buildButton = new Button("Build", event -> build());
+        final Button randomizeButton = new Button("Randomize values", event -> randomize());
+
+        final HorizontalLayout controls = new HorizontalLayout(this.countSelect, this.maxValueSelect,
+            this.captionsCheckBox, this.animatedCheckBox, this.displayOnlyCheckBox, buildButton, randomizeButton);
+        controls.setMargin(false);
+
+        final HorizontalLayout metrics = new HorizontalLayout(this.serverTimeLabel, this.responseSizeLabel,
+            this.renderTimeLabel);
+        metrics.setMargin(false);
+
+        this.starsLayout.setWidth("100%");
+
+        setContent(new VerticalLayout(controls, metrics, this.starsLayout));
+    }
+
+    @Override
+    public void attach() {
+        super.attach();
+        getUI().getPage()
+            .getJavaScript()
+            .addFunction(StressTestPanel.REPORT_FUNCTION, arguments -> {
+                this.renderTimeLabel.setValue(String.format(Locale.ENGLISH, "Client render: %.1f ms", arguments.getNumber(0)));
+                this.responseSizeLabel.setValue(String.format(Locale.ENGLISH, "Response size: %.1f kB", arguments.getNumber(1) / 1024));
+            });
+    }
+
+    @Override
+    public void detach() {
+        getUI().getPage()
+            .getJavaScript()
+            .removeFunction(StressTestPanel.REPORT_FUNCTION);
+        super.detach();
+    }
+
+    private void build() {
+        final int count = this.countSelect.getValue();
+        this.maxValue = this.maxValueSelect.getValue();
+        final boolean captions = this.captionsCheckBox.getValue();
+        final boolean animated = this.animatedCheckBox.getValue();
+        final boolean displayOnly = this.displayOnlyCheckBox.getValue();
+
+        final long start = System.nanoTime();
+        this.starsLayout.removeAllComponents();
+        this.components.clear();
+        for (int i = 0; i < count; i++) {
+            if (displayOnly) {
+                final RatingStarsDisplay rsd = new RatingStarsDisplay(randomValue(this.maxValue));
+                rsd.setMaxValue(this.maxValue);
+                this.components.add(rsd);
+            }
+            else {
+                final RatingStars rs = new RatingStars();
+                rs.setMaxValue(this.maxValue);
+                rs.setAnimated(animated);
+                if (captions) {
+                    rs.setValueCaption(Arrays.copyOf(StressTestPanel.CAPTIONS, this.maxValue));
+                }
+                rs.setValue(randomValue(this.maxValue));
+                this.components.add(rs);
+            }
+        }
+        this.starsLayout.addComponents(this.components.toArray(new Component[count]));
+        reportServerTime("Build", start);
+    }
+
+    private void randomize() {
+        final long start = System.nanoTime();
+        for (final Component component : this.components) {
+            if (component instanceof RatingStarsDisplay) {
+                ((RatingStarsDisplay) component).setValue(randomValue(this.maxValue));
+            }
+            else {
+                ((RatingStars) component).setValue(randomValue(this.maxValue));
+            }
+        }
+        reportServerTime("Update", start);
+    }
+
+    private void reportServerTime(final String operation, final long start) {
+        final double millis = (System.nanoTime() - start) / 1e6;
+        this.serverTimeLabel.setValue(String.format(Locale.ENGLISH, "%s (%d components): %.1f ms", operation,
+            this.components.size(), millis));
+        this.responseSizeLabel.setValue("Response size: ...");
+        this.renderTimeLabel.setValue("Client render: ...");
+        getUI().getPage()
+            .getJavaScript()
+            .execute(StressTestPanel.REPORT_SCRIPT);
+    }
+
+    private static double randomValue(final int maxValue) {
+        return ThreadLocalRandom.current()
+            .nextDouble(0, maxValue);
+    }
+
+}
@@ -0,0 +1,183 @@
+package org.vaadin.teemu.ratingstars;
+
+import java.util.Arrays;
+
+import com.vaadin.ui.AbstractComponent;
+import org.vaadin.teemu.ratingstars.gwt.client.RatingHistogramClientRpc;
+import org.vaadin.teemu.ratingstars.gwt.client.RatingHistogramState;
+
+/**
+ * RatingHistogram is a read-only component displaying the distribution of
+ * votes per star value, e.g. next to a {@link RatingStars} showing the
+ * average rating. It uses the same theme as {@link RatingStars}.
+ * <p>
+ * Once the component has been sent to the client, changing individual
+ * counts sends only the changed counts instead of the whole distribution.
+ * The counts are kept in the component and written to the shared state only
+ * when the whole distribution has to be sent, i.e. in the initial response
+ * and when the number of star values changes.
+ */
+public class RatingHistogram extends AbstractComponent {
+    private static final long serialVersionUID = -6183318431370580839L;
+
+    /** Number of votes per star value, index 0 holding the count of 1 star. */
+    private long[] counts = new long[0];
+
+    /** Whether the whole distribution must be written to the state. */
+    private boolean sendAll = true;
+
+    /**
+     * Constructs a new RatingHistogram for five star values with all counts
+     * set to zero.
+     */
+    public RatingHistogram() {
+        this(5);
+    }
+
+    /**
+     * Constructs a new RatingHistogram for the given number of star values
+     * with all counts set to zero.
+     *
+     * @param maxValue
+     *            the highest star value
+     */
+    public RatingHistogram(int maxValue) {
+        setMaxValue(maxValue);
+    }
+
+    @Override
+    protected RatingHistogramState getState() {
+        return (RatingHistogramState) super.getState();
+    }
+
+    @Override
+    protected RatingHistogramState getState(boolean markAsDirty) {
+        return (RatingHistogramState) super.getState(markAsDirty);
+    }
+
+    @Override
+    public void attach() {
+        super.attach();
+        // the initial response of the new client connector includes all counts
+        sendAll = true;
+    }
+
+    @Override
+    public void beforeClientResponse(boolean initial) {
+        super.beforeClientResponse(initial);
+        if (initial || sendAll) {
+            getState().counts = counts.clone();
+            sendAll = false;
+        }
+    }
+
+    /**
+     * Sets the highest star value. Existing counts are kept for the star
+     * values that still exist.
+     *
+     * @param maxValue
+     */
+    public void setMaxValue(int maxValue) {
+        if (maxValue <= 0) {
+            throw new IllegalArgumentException("Given maximum value (" + maxValue + ") must be greater than zero.");
+        }
+        if (maxValue != getMaxValue()) {
+            replaceCounts(Arrays.copyOf(counts, maxValue));
+        }
+    }
+
+    /**
+     * @return the highest star value
+     */
+    public int getMaxValue() {
+        return counts.length;
+    }
+
+    /**
+     * Sets the counts of all star values. The length of the given array
+     * defines the highest star value.
+     *
+     * @param counts
+     *            number of votes per star value, index 0 holding the count of
+     *            1 star
+     */
+    public void setCounts(long... counts) {
+        if (counts.length != getMaxValue()) {
+            replaceCounts(counts.clone());
+            return;
+        }
+        int changed = 0;
+        int[] changedValues = new int[counts.length];
+        long[] changedCounts = new long[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            if (this.counts[i] != counts[i]) {
+                this.counts[i] = counts[i];
+                changedValues[changed] = i + 1;
+                changedCounts[changed] = counts[i];
+                changed++;
+            }
+        }
+        if (changed > 0) {
+            sendCounts(Arrays.copyOf(changedValues, changed), Arrays.copyOf(changedCounts, changed));
+        }
+    }
+
+    /**
+     * Sets the count of a single star value.
+     *
+     * @param starValue
+     *            the star value (1..maxValue)
+     * @param count
+     *            number of votes for the star value
+     */
+    public void setCount(int starValue, long count) {
+        checkStarValue(starValue);
+        if (counts[starValue - 1] != count) {
+            counts[starValue - 1] = count;
+            sendCounts(new int[] { starValue }, new long[] { count });
+        }
+    }
+
+    /**
+     * @param starValue
+     *            the star value (1..maxValue)
+     * @return number of votes for the star value
+     */
+    public long getCount(int starValue) {
+        checkStarValue(starValue);
+        return counts[starValue - 1];
+    }
+
+    /**
+     * @return a copy of the counts, index 0 holding the count of 1 star
+     */
+    public long[] getCounts() {
+        return counts.clone();
+    }
+
+    private void checkStarValue(int starValue) {
+        if (starValue <= 0 || starValue > getMaxValue()) {
+            throw new IllegalArgumentException(
+                    "Given star value (" + starValue + ") must be between 1 and " + getMaxValue() + ".");
+        }
+    }
+
+    private void replaceCounts(long[] counts) {
+        this.counts = counts;
+        sendAll = true;
+        markAsDirty();
+    }
+
+    /**
+     * Sends the changed counts to the client. The shared state is left
+     * untouched, so the response carries only the RPC call. Nothing is sent
+     * while the whole distribution is pending anyway, or while detached, as
+     * the initial response of the next attach includes all counts.
+     */
+    private void sendCounts(int[] starValues, long[] counts) {
+        if (isAttached() && !sendAll) {
+            getRpcProxy(RatingHistogramClientRpc.class).updateCounts(starValues, counts);
+        }
+    }
+
+}
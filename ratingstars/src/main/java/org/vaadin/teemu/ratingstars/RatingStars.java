@@ -1,5 +1,12 @@
 package org.vaadin.teemu.ratingstars;
 
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
 import com.vaadin.ui.AbstractField;
 import org.vaadin.teemu.ratingstars.gwt.client.RatingStarsServerRpc;
 import org.vaadin.teemu.ratingstars.gwt.client.RatingStarsState;
@@ -17,10 +24,17 @@ public class RatingStars extends AbstractField<Double> implements Comparable<Rat
 
         @Override
         public void valueChanged(double newValue) {
-            setValue(newValue);
+            handleVote(newValue);
         }
     };
 
+    private VoteRateLimiter voteRateLimiter;
+    private TokenBucket voteBucket;
+    private Object voteItemId;
+
+    /** Latest vote throttled in {@link VoteRateLimiter.ThrottleMode#COLLAPSE} mode. */
+    private Double throttledVote;
+
     /**
      * Constructs a new animated RatingStars component with default value of 0.0
      * and default maximum value of five.
@@ -42,6 +56,11 @@ public class RatingStars extends AbstractField<Double> implements Comparable<Rat
         return (RatingStarsState) super.getState();
     }
 
+    @Override
+    protected RatingStarsState getState(boolean markAsDirty) {
+        return (RatingStarsState) super.getState(markAsDirty);
+    }
+
     /**
      * Sets the maximum value (rating) the user can give. The default value is
      * five.
@@ -66,6 +85,112 @@ public class RatingStars extends AbstractField<Double> implements Comparable<Rat
         getState().animated = animated;
     }
 
+    /**
+     * Sets the limiter applied to the votes given by the user through this
+     * component, or <code>null</code> to apply every vote (the default).
+     * <p>
+     * A throttled vote doesn't change the value of this component. As the
+     * client-side widget only displays values confirmed by the server, it
+     * returns to the accepted value.
+     *
+     * <p>
+     * As no item id is given, the per-item limit applies to this component
+     * instance only and starts over for a new instance, e.g. after a page
+     * reload. Use {@link #setVoteRateLimiter(VoteRateLimiter, Object)} to
+     * enforce it across reloads.
+     *
+     * @param voteRateLimiter
+     *            the limiter to use, possibly shared with other components
+     */
+    public void setVoteRateLimiter(VoteRateLimiter voteRateLimiter) {
+        setVoteRateLimiter(voteRateLimiter, null);
+    }
+
+    /**
+     * Sets the limiter applied to the votes given by the user through this
+     * component, or <code>null</code> to apply every vote (the default). The
+     * per-item limit is shared by all components of the session rating the
+     * item with the given id.
+     * <p>
+     * A throttled vote doesn't change the value of this component. As the
+     * client-side widget only displays values confirmed by the server, it
+     * returns to the accepted value.
+     *
+     * @param voteRateLimiter
+     *            the limiter to use, possibly shared with other components
+     * @param itemId
+     *            serializable id of the rated item, or <code>null</code> to
+     *            limit the votes of this component instance only
+     */
+    public void setVoteRateLimiter(VoteRateLimiter voteRateLimiter, Object itemId) {
+        this.voteRateLimiter = voteRateLimiter;
+        this.voteBucket = voteRateLimiter != null ? voteRateLimiter.createItemBucket() : null;
+        this.voteItemId = itemId;
+        this.throttledVote = null;
+    }
+
+    /**
+     * Applies the latest vote throttled in
+     * {@link VoteRateLimiter.ThrottleMode#COLLAPSE} mode if the limit allows
+     * it by now. Can be called e.g. from a poll listener of the UI.
+     *
+     * @return <code>true</code> if a throttled vote was applied
+     */
+    public boolean flushThrottledVote() {
+        Double vote = throttledVote;
+        if (vote == null || !voteRateLimiter.tryAcquire(voteBucket, voteItemId, getSession())) {
+            return false;
+        }
+        throttledVote = null;
+        setValue(vote);
+        return true;
+    }
+
+    private void handleVote(double newValue) {
+        if (voteRateLimiter == null) {
+            setValue(newValue);
+        } else if (voteRateLimiter.tryAcquire(voteBucket, voteItemId, getSession())) {
+            // Any previously throttled vote is superseded by this one.
+            throttledVote = null;
+            setValue(newValue);
+        } else if (voteRateLimiter.getThrottleMode() == VoteRateLimiter.ThrottleMode.COLLAPSE) {
+            throttledVote = newValue;
+        }
+    }
+
+    /**
+     * Sets the values of several RatingStars components in one pass. Unlike
+     * calling {@link #setValue(Double)} on each of them, no per-component
+     * {@link com.vaadin.data.HasValue.ValueChangeEvent ValueChangeEvent} is
+     * fired. Components whose value doesn't change are skipped and not
+     * marked dirty.
+     *
+     * @param values
+     *            the new values by component
+     * @param listener
+     *            listener notified once with all changes, or
+     *            <code>null</code> to fire no event at all
+     * @return the previous values of the changed components
+     */
+    public static Map<RatingStars, Double> setValues(Map<RatingStars, Double> values,
+            BulkValueChangeListener listener) {
+        Map<RatingStars, Double> oldValues = new LinkedHashMap<>();
+        for (Map.Entry<RatingStars, Double> entry : values.entrySet()) {
+            RatingStars ratingStars = entry.getKey();
+            Double oldValue = ratingStars.getValue();
+            if (!Objects.equals(oldValue, entry.getValue())) {
+                // A throttled vote is superseded, as in handleVote(double).
+                ratingStars.throttledVote = null;
+                ratingStars.doSetValue(entry.getValue());
+                oldValues.put(ratingStars, oldValue);
+            }
+        }
+        if (listener != null && !oldValues.isEmpty()) {
+            listener.valuesChanged(new BulkValueChangeEvent(oldValues));
+        }
+        return oldValues;
+    }
+
     @Override
     public int compareTo(RatingStars o) {
         return getValue().compareTo(o.getValue());
@@ -106,4 +231,49 @@ public class RatingStars extends AbstractField<Double> implements Comparable<Rat
         }
     }
 
+    /**
+     * Event fired once by {@link RatingStars#setValues(Map, BulkValueChangeListener)}
+     * for all changed components.
+     */
+    public static class BulkValueChangeEvent implements Serializable {
+        private static final long serialVersionUID = 2815384120591305523L;
+
+        private final Map<RatingStars, Double> oldValues;
+
+        protected BulkValueChangeEvent(Map<RatingStars, Double> oldValues) {
+            this.oldValues = Collections.unmodifiableMap(oldValues);
+        }
+
+        /**
+         * @return the previous values of the changed components, in the order
+         *         of the map given to the bulk update
+         */
+        public Map<RatingStars, Double> getOldValues() {
+            return oldValues;
+        }
+
+        /**
+         * @return the changed components, their new value available through
+         *         {@link RatingStars#getValue()}
+         */
+        public Set<RatingStars> getChangedComponents() {
+            return oldValues.keySet();
+        }
+    }
+
+    /**
+     * Listener for {@link BulkValueChangeEvent}s.
+     */
+    @FunctionalInterface
+    public interface BulkValueChangeListener extends Serializable {
+
+        /**
+         * Called once after all values of a bulk update have been set.
+         *
+         * @param event
+         *            the event describing the changed components
+         */
+        void valuesChanged(BulkValueChangeEvent event);
+    }
+
 }
@@ -0,0 +1,80 @@
+package org.vaadin.teemu.ratingstars;
+
+import com.vaadin.ui.AbstractComponent;
+import org.vaadin.teemu.ratingstars.gwt.client.RatingStarsDisplayState;
+
+/**
+ * RatingStarsDisplay is a display-only counterpart of {@link RatingStars},
+ * e.g. for showing average ratings in listings. It looks the same as a
+ * read-only {@link RatingStars} but is backed by a much smaller client-side
+ * implementation without keyboard support, animations or value captions.
+ */
+public class RatingStarsDisplay extends AbstractComponent {
+    private static final long serialVersionUID = -5050633812522806005L;
+
+    /**
+     * Constructs a new RatingStarsDisplay with the value of 0.0 and the
+     * default maximum value of five.
+     */
+    public RatingStarsDisplay() {
+    }
+
+    /**
+     * Constructs a new RatingStarsDisplay with the given value and the
+     * default maximum value of five.
+     *
+     * @param value
+     *            the displayed rating
+     */
+    public RatingStarsDisplay(double value) {
+        setValue(value);
+    }
+
+    @Override
+    protected RatingStarsDisplayState getState() {
+        return (RatingStarsDisplayState) super.getState();
+    }
+
+    @Override
+    protected RatingStarsDisplayState getState(boolean markAsDirty) {
+        return (RatingStarsDisplayState) super.getState(markAsDirty);
+    }
+
+    /**
+     * Sets the maximum value (number of stars). The default value is five.
+     *
+     * @param maxValue
+     */
+    public void setMaxValue(int maxValue) {
+        if (maxValue <= 0) {
+            throw new IllegalArgumentException("Given maximum value (" + maxValue + ") must be greater than zero.");
+        }
+        getState().maxValue = maxValue;
+    }
+
+    /**
+     * @return the maximum value (number of stars)
+     */
+    public int getMaxValue() {
+        return getState(false).maxValue;
+    }
+
+    /**
+     * Sets the displayed rating.
+     *
+     * @param value
+     */
+    public void setValue(double value) {
+        if (value != getState(false).value) {
+            getState().value = value;
+        }
+    }
+
+    /**
+     * @return the displayed rating
+     */
+    public double getValue() {
+        return getState(false).value;
+    }
+
+}
@@ -0,0 +1,84 @@
+package org.vaadin.teemu.ratingstars;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free token bucket implemented as a generic cell rate algorithm: the
+ * only state is the theoretical arrival time of the next token, updated with
+ * a compare-and-set loop.
+ *
+ * @see VoteRateLimiter
+ */
+final class TokenBucket implements Serializable {
+    private static final long serialVersionUID = -2125447317733848616L;
+
+    private final long nanosPerToken;
+    private final long capacityNanos;
+
+    /** Point in time (of {@link System#nanoTime()}) the bucket is full again. */
+    private final AtomicLong fullAt;
+
+    /**
+     * @param capacity
+     *            number of tokens available in a burst
+     * @param nanosPerToken
+     *            time it takes to refill a single token
+     */
+    TokenBucket(int capacity, long nanosPerToken) {
+        this.nanosPerToken = nanosPerToken;
+        this.capacityNanos = capacity * nanosPerToken;
+        this.fullAt = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Takes a token from the bucket if one is available.
+     *
+     * @return <code>true</code> if a token was taken
+     */
+    boolean tryAcquire() {
+        long now = System.nanoTime();
+        while (true) {
+            long current = fullAt.get();
+            long ahead = current - now;
+            // A value too far ahead can only come from a deserialized bucket
+            // of another JVM, whose nanoTime is not comparable -> restart.
+            long base = ahead < 0 || ahead > capacityNanos ? now : current;
+            long next = base + nanosPerToken;
+            if (next - now > capacityNanos) {
+                return false;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return <code>true</code> if no token has been taken, or all taken
+     *         tokens have been refilled
+     */
+    boolean isFull() {
+        long ahead = fullAt.get() - System.nanoTime();
+        return ahead <= 0 || ahead > capacityNanos;
+    }
+
+    /**
+     * Returns a token taken by {@link #tryAcquire()}, e.g. when the guarded
+     * action was denied for another reason.
+     */
+    void refund() {
+        long now = System.nanoTime();
+        while (true) {
+            long current = fullAt.get();
+            if (current - now <= 0) {
+                return; // Already full.
+            }
+            long previous = Math.max(current - nanosPerToken, now);
+            if (fullAt.compareAndSet(current, previous)) {
+                return;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,158 @@
+package org.vaadin.teemu.ratingstars;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import com.vaadin.server.VaadinSession;
+
+/**
+ * VoteRateLimiter limits how often the votes given by the user through
+ * {@link RatingStars} components are applied. Each rated item and each
+ * session have their own token bucket; a vote is applied only if both of
+ * them have a token left. The buckets are stored in the session, so
+ * reloading the page or opening another UI doesn't reset them.
+ * <p>
+ * The item of a component is identified by the id given to
+ * {@link RatingStars#setVoteRateLimiter(VoteRateLimiter, Object)}. A
+ * component without an item id uses a bucket of its own instead, which
+ * starts full again for every new component instance.
+ * <p>
+ * A single limiter can be shared by any number of components and sessions.
+ *
+ * @see RatingStars#setVoteRateLimiter(VoteRateLimiter)
+ */
+public class VoteRateLimiter implements Serializable {
+    private static final long serialVersionUID = 6893153213426540297L;
+
+    /**
+     * Defines what happens to votes exceeding the limit.
+     */
+    public enum ThrottleMode {
+        /** Throttled votes are discarded. */
+        DROP,
+        /**
+         * The latest throttled vote is kept and applied by
+         * {@link RatingStars#flushThrottledVote()} once the limit allows it.
+         */
+        COLLAPSE
+    }
+
+    /** Number of item buckets above which the full ones are discarded. */
+    private static final int MAX_ITEM_BUCKETS = 1000;
+
+    private final int votesPerItem;
+    private final int votesPerSession;
+    private final long periodNanos;
+    private final ThrottleMode throttleMode;
+
+    /** Name of the session attribute holding the buckets of the session. */
+    private final String sessionAttribute = VoteRateLimiter.class.getName() + "." + UUID.randomUUID();
+
+    /**
+     * Constructs a new VoteRateLimiter. The given number of votes may be
+     * given in a burst, after which the votes are refilled evenly over the
+     * period.
+     *
+     * @param votesPerItem
+     *            votes allowed per item within the period
+     * @param votesPerSession
+     *            votes allowed per session within the period
+     * @param period
+     *            the period length
+     * @param unit
+     *            unit of <code>period</code>
+     * @param throttleMode
+     *            what to do with votes exceeding the limit
+     */
+    public VoteRateLimiter(int votesPerItem, int votesPerSession, long period, TimeUnit unit,
+            ThrottleMode throttleMode) {
+        if (votesPerItem <= 0 || votesPerSession <= 0) {
+            throw new IllegalArgumentException("Given vote limits (" + votesPerItem + ", " + votesPerSession
+                    + ") must be greater than zero.");
+        }
+        if (period <= 0) {
+            throw new IllegalArgumentException("Given period (" + period + ") must be greater than zero.");
+        }
+        if (throttleMode == null) {
+            throw new IllegalArgumentException("Throttle mode must not be null.");
+        }
+        this.votesPerItem = votesPerItem;
+        this.votesPerSession = votesPerSession;
+        this.periodNanos = unit.toNanos(period);
+        this.throttleMode = throttleMode;
+    }
+
+    /**
+     * @return what happens to votes exceeding the limit
+     */
+    public ThrottleMode getThrottleMode() {
+        return throttleMode;
+    }
+
+    TokenBucket createItemBucket() {
+        return new TokenBucket(votesPerItem, periodNanos / votesPerItem);
+    }
+
+    /**
+     * Takes a token from both the bucket of the given item and the bucket of
+     * the given session, or from neither of them. Must be called while
+     * holding the session lock.
+     *
+     * @param componentBucket
+     *            bucket of the component, used if there is no item id or no
+     *            session
+     * @param itemId
+     *            id of the rated item, or <code>null</code>
+     * @param session
+     *            session of the voting user, or <code>null</code>
+     * @return <code>true</code> if the vote may be applied
+     */
+    boolean tryAcquire(TokenBucket componentBucket, Object itemId, VaadinSession session) {
+        if (session == null) {
+            return componentBucket.tryAcquire();
+        }
+        SessionBuckets buckets = (SessionBuckets) session.getAttribute(sessionAttribute);
+        if (buckets == null) {
+            buckets = new SessionBuckets(new TokenBucket(votesPerSession, periodNanos / votesPerSession));
+            session.setAttribute(sessionAttribute, buckets);
+        }
+        TokenBucket itemBucket = itemId != null ? buckets.getItemBucket(itemId) : componentBucket;
+        if (!itemBucket.tryAcquire()) {
+            return false;
+        }
+        if (!buckets.sessionBucket.tryAcquire()) {
+            // Don't let votes denied by the session limit use up the budget
+            // of the item.
+            itemBucket.refund();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Buckets of a single session, only accessed while holding the session
+     * lock.
+     */
+    private final class SessionBuckets implements Serializable {
+        private static final long serialVersionUID = -4420871766139853325L;
+
+        private final TokenBucket sessionBucket;
+        private final Map<Object, TokenBucket> itemBuckets = new HashMap<>();
+
+        SessionBuckets(TokenBucket sessionBucket) {
+            this.sessionBucket = sessionBucket;
+        }
+
+        TokenBucket getItemBucket(Object itemId) {
+            if (itemBuckets.size() >= MAX_ITEM_BUCKETS && !itemBuckets.containsKey(itemId)) {
+                // A full bucket is equal to a new one.
+                itemBuckets.values().removeIf(TokenBucket::isFull);
+            }
+            return itemBuckets.computeIfAbsent(itemId, id -> createItemBucket());
+        }
+    }
+
+}
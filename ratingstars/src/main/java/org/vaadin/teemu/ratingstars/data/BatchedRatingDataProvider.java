@@ -0,0 +1,242 @@
+package org.vaadin.teemu.ratingstars.data;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.vaadin.data.ValueProvider;
+import com.vaadin.data.provider.DataProvider;
+import com.vaadin.data.provider.DataProviderWrapper;
+import com.vaadin.data.provider.Query;
+import com.vaadin.server.SerializableSupplier;
+import org.vaadin.teemu.ratingstars.RatingStars;
+
+/**
+ * BatchedRatingDataProvider wraps a {@link DataProvider} of rated items and
+ * looks up the ratings of every fetched page with a single
+ * {@link RatingBatchLoader} call, before the rows are rendered. Rendering
+ * code (e.g. a component column of a {@code Grid}) then reads the ratings
+ * with {@link #getRating(Object)} without querying the rating store per row.
+ * <p>
+ * The ratings of the most recently fetched page are held by the provider
+ * until the next fetch, so they can't be evicted before the rows have been
+ * rendered. Loaded ratings are also kept in a {@link RatingCache}, so
+ * scrolling back to an already seen page doesn't query the rating store
+ * again. The cache itself is not serialized with the provider; it is
+ * obtained through a serializable supplier when first needed.
+ * <p>
+ * After a vote has been stored, call {@link #refreshItem(Object)} or
+ * {@link #refreshAll()} of this provider rather than of the wrapped one, so
+ * that the affected ratings are discarded and looked up again.
+ *
+ * @param <T>
+ *            type of the rated items
+ * @param <F>
+ *            type of the filter of the wrapped data provider
+ * @param <K>
+ *            type of the item identifier used by the rating store
+ */
+public class BatchedRatingDataProvider<T, F, K> extends DataProviderWrapper<T, F, F> {
+    private static final long serialVersionUID = 2309438112507738012L;
+
+    private final ValueProvider<T, K> itemIdProvider;
+    private final RatingBatchLoader<K> batchLoader;
+    private final SerializableSupplier<RatingCache<K>> cacheSupplier;
+
+    private transient RatingCache<K> cache;
+    /** Ratings of the most recently fetched page. */
+    private transient volatile Map<K, Double> pageRatings;
+
+    /**
+     * Constructs a new BatchedRatingDataProvider with its own
+     * {@link RatingCache} of the given size. The cache starts empty again
+     * after the provider has been deserialized.
+     *
+     * @param dataProvider
+     *            the wrapped data provider
+     * @param itemIdProvider
+     *            provides the rating store identifier of an item
+     * @param batchLoader
+     *            loader of the ratings of a page
+     * @param maximumCacheSize
+     *            maximum number of cached ratings
+     */
+    public BatchedRatingDataProvider(DataProvider<T, F> dataProvider, ValueProvider<T, K> itemIdProvider,
+            RatingBatchLoader<K> batchLoader, int maximumCacheSize) {
+        this(dataProvider, itemIdProvider, batchLoader,
+                () -> new RatingCache<>(item -> loadSingle(batchLoader, item), maximumCacheSize));
+    }
+
+    /**
+     * Constructs a new BatchedRatingDataProvider storing the loaded ratings in
+     * a, possibly application-wide, {@link RatingCache}. The supplier is
+     * serialized with the provider and should look the cache up rather than
+     * capture it, e.g. <code>() -&gt; MyRatings.CACHE</code>.
+     *
+     * @param dataProvider
+     *            the wrapped data provider
+     * @param itemIdProvider
+     *            provides the rating store identifier of an item
+     * @param batchLoader
+     *            loader of the ratings of a page
+     * @param cacheSupplier
+     *            supplier of the cache for the loaded ratings
+     */
+    public BatchedRatingDataProvider(DataProvider<T, F> dataProvider, ValueProvider<T, K> itemIdProvider,
+            RatingBatchLoader<K> batchLoader, SerializableSupplier<RatingCache<K>> cacheSupplier) {
+        super(dataProvider);
+        if (itemIdProvider == null || batchLoader == null || cacheSupplier == null) {
+            throw new IllegalArgumentException("Item id provider, batch loader and cache supplier must not be null.");
+        }
+        this.itemIdProvider = itemIdProvider;
+        this.batchLoader = batchLoader;
+        this.cacheSupplier = cacheSupplier;
+    }
+
+    @Override
+    protected F getFilter(Query<T, F> query) {
+        return query.getFilter().orElse(null);
+    }
+
+    @Override
+    public Stream<T> fetch(Query<T, F> query) {
+        List<T> page = super.fetch(query).collect(Collectors.toList());
+        if (page.size() > getCache().getMaximumSize()) {
+            getLogger().warning("Fetched page (" + page.size() + " items) exceeds the rating cache size ("
+                    + getCache().getMaximumSize() + "), ratings can't be reused between pages.");
+        }
+        pageRatings = preload(page);
+        return page.stream();
+    }
+
+    /**
+     * Discards all cached ratings and refreshes the wrapped data provider.
+     */
+    @Override
+    public void refreshAll() {
+        pageRatings = null;
+        getCache().invalidateAll();
+        super.refreshAll();
+    }
+
+    /**
+     * Discards the cached rating of the given item and refreshes it in the
+     * wrapped data provider.
+     *
+     * @param item
+     *            the rated item
+     */
+    @Override
+    public void refreshItem(T item) {
+        K id = itemIdProvider.apply(item);
+        Map<K, Double> page = pageRatings;
+        if (page != null && page.containsKey(id)) {
+            Map<K, Double> remaining = new HashMap<>(page);
+            remaining.remove(id);
+            pageRatings = remaining;
+        }
+        getCache().invalidate(id);
+        super.refreshItem(item);
+    }
+
+    /**
+     * Returns the rating of the given item. Ratings of items belonging to the
+     * most recently fetched page are always available without a lookup.
+     *
+     * @param item
+     *            the rated item
+     * @return the rating of the item
+     */
+    public double getRating(T item) {
+        K id = itemIdProvider.apply(item);
+        Map<K, Double> page = pageRatings;
+        Double rating = page != null ? page.get(id) : null;
+        return rating != null ? rating : getCache().get(id);
+    }
+
+    /**
+     * Sets the rating of the given item as the value of the given
+     * {@link RatingStars}.
+     *
+     * @param ratingStars
+     *            component to update
+     * @param item
+     *            the rated item
+     */
+    public void setValue(RatingStars ratingStars, T item) {
+        ratingStars.setValue(getRating(item));
+    }
+
+    /**
+     * @return the cache holding the loaded ratings
+     */
+    public RatingCache<K> getCache() {
+        if (cache == null) {
+            cache = cacheSupplier.get();
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the ratings of all given items, loading the ones that are not
+     * cached yet with a single batch call. The returned map is independent of
+     * the cache, so none of the ratings can be evicted from it.
+     *
+     * @param items
+     *            the rated items
+     * @return the ratings by item identifier
+     */
+    public Map<K, Double> preload(List<T> items) {
+        RatingCache<K> ratingCache = getCache();
+        Map<K, Double> ratings = new HashMap<>();
+        Set<K> missing = new LinkedHashSet<>();
+        for (T item : items) {
+            K id = itemIdProvider.apply(item);
+            Double cached = ratingCache.getCached(id);
+            if (cached != null) {
+                ratings.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<K, Double> loaded = join(batchLoader, missing);
+            for (K id : missing) {
+                Double rating = loaded.get(id);
+                double value = rating != null ? rating : 0.0;
+                ratings.put(id, value);
+                ratingCache.put(id, value);
+            }
+        }
+        return ratings;
+    }
+
+    private static <K> double loadSingle(RatingBatchLoader<K> batchLoader, K item) {
+        Double rating = join(batchLoader, Collections.singleton(item)).get(item);
+        return rating != null ? rating : 0.0;
+    }
+
+    private static <K> Map<K, Double> join(RatingBatchLoader<K> batchLoader, Set<K> items) {
+        try {
+            Map<K, Double> ratings = batchLoader.loadAll(items).toCompletableFuture().join();
+            return ratings != null ? ratings : Collections.emptyMap();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static Logger getLogger() {
+        return Logger.getLogger(BatchedRatingDataProvider.class.getName());
+    }
+
+}
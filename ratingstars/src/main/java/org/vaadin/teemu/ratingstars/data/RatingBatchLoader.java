@@ -0,0 +1,32 @@
+package org.vaadin.teemu.ratingstars.data;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Loads the ratings of several items with a single query to the backing
+ * rating store. Used by {@link BatchedRatingDataProvider} to look up the
+ * ratings of a whole fetched page at once.
+ *
+ * @param <K>
+ *            type of the item identifier
+ * @see BatchedRatingDataProvider
+ */
+@FunctionalInterface
+public interface RatingBatchLoader<K> extends Serializable {
+
+    /**
+     * Starts loading the ratings of the given items. The returned stage may
+     * be completed by another thread, e.g. by an executor of the rating
+     * store client.
+     *
+     * @param items
+     *            distinct identifiers of the rated items, never empty
+     * @return stage completed with the ratings by item; items missing from
+     *         the map are considered to have a rating of 0.0
+     */
+    CompletionStage<Map<K, Double>> loadAll(Set<K> items);
+
+}
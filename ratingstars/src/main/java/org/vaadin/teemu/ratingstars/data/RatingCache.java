@@ -0,0 +1,510 @@
+package org.vaadin.teemu.ratingstars.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.vaadin.teemu.ratingstars.RatingStars;
+
+/**
+ * RatingCache is a bounded read-through cache of item ratings used to feed
+ * the values of (typically read-only) {@link RatingStars} components.
+ * <p>
+ * Missing ratings are loaded through the given {@link RatingLoader}.
+ * Concurrent misses for the same item share a single load. Entries older
+ * than the refresh interval are still served, but trigger one asynchronous
+ * reload in the background (refresh-ahead). When the cache grows past its
+ * maximum size the least frequently read entries are evicted.
+ * {@link #put(Object, double)} and {@link #invalidate(Object)} supersede any
+ * load or refresh of the item that is still in progress, so its result is
+ * discarded instead of overwriting the newer state.
+ * <p>
+ * A cache instance is thread-safe and is meant to be shared by the whole
+ * application. It is deliberately not serializable; session-scoped objects
+ * should reference it through a serializable lookup, see
+ * {@link BatchedRatingDataProvider}.
+ *
+ * @param <K>
+ *            type of the item identifier
+ */
+public class RatingCache<K> {
+
+    /** Fraction of the maximum size the cache is trimmed to on eviction. */
+    private static final double EVICTION_TARGET = 0.9;
+
+    private final RatingLoader<K> loader;
+    private final int maximumSize;
+    private final long refreshAfterNanos;
+    private final Executor refreshExecutor;
+
+    private final ConcurrentMap<K, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<K, CompletableFuture<Double>> loading = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder refreshCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Constructs a new RatingCache that never refreshes its entries once
+     * loaded.
+     *
+     * @param loader
+     *            loader used for missing ratings
+     * @param maximumSize
+     *            maximum number of cached ratings
+     */
+    public RatingCache(RatingLoader<K> loader, int maximumSize) {
+        this(loader, maximumSize, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Constructs a new RatingCache that refreshes entries in the common
+     * {@link ForkJoinPool} once they are older than the given interval.
+     *
+     * @param loader
+     *            loader used for missing and refreshed ratings
+     * @param maximumSize
+     *            maximum number of cached ratings
+     * @param refreshAfter
+     *            age after which a read triggers a background refresh, or
+     *            zero to disable refreshing
+     * @param unit
+     *            unit of <code>refreshAfter</code>
+     */
+    public RatingCache(RatingLoader<K> loader, int maximumSize, long refreshAfter, TimeUnit unit) {
+        this(loader, maximumSize, refreshAfter, unit, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a new RatingCache.
+     *
+     * @param loader
+     *            loader used for missing and refreshed ratings
+     * @param maximumSize
+     *            maximum number of cached ratings
+     * @param refreshAfter
+     *            age after which a read triggers a background refresh, or
+     *            zero to disable refreshing
+     * @param unit
+     *            unit of <code>refreshAfter</code>
+     * @param refreshExecutor
+     *            executor running the background refreshes
+     */
+    public RatingCache(RatingLoader<K> loader, int maximumSize, long refreshAfter, TimeUnit unit,
+            Executor refreshExecutor) {
+        if (loader == null) {
+            throw new IllegalArgumentException("Loader must not be null.");
+        }
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Given maximum size (" + maximumSize + ") must be greater than zero.");
+        }
+        if (refreshAfter < 0) {
+            throw new IllegalArgumentException("Given refresh interval (" + refreshAfter + ") must not be negative.");
+        }
+        if (refreshExecutor == null) {
+            throw new IllegalArgumentException("Refresh executor must not be null.");
+        }
+        this.loader = loader;
+        this.maximumSize = maximumSize;
+        this.refreshAfterNanos = unit.toNanos(refreshAfter);
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * Returns the rating of the given item, loading it if it is not cached.
+     * Concurrent calls for the same missing item wait for a single load.
+     *
+     * @param item
+     *            identifier of the rated item
+     * @return the rating of the item
+     */
+    public double get(K item) {
+        Double cached = getCached(item);
+        return cached != null ? cached : load(item);
+    }
+
+    /**
+     * Returns the cached rating of the given item without loading it. Unlike
+     * {@link #getIfPresent(Object)} this counts as a read of the item: it is
+     * recorded as a hit or a miss in the statistics, makes the entry less
+     * likely to be evicted and triggers the refresh of a stale entry. Meant
+     * for callers loading the missing ratings themselves, e.g. in batches.
+     *
+     * @param item
+     *            identifier of the rated item
+     * @return the cached rating or <code>null</code> if not cached
+     */
+    public Double getCached(K item) {
+        Entry entry = entries.get(item);
+        if (entry == null) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        entry.recordAccess();
+        Rating rating = entry.rating.get();
+        if (rating.needsRefresh(System.nanoTime())) {
+            refresh(item, entry, rating);
+        }
+        return rating.value;
+    }
+
+    /**
+     * Returns the cached rating of the given item without loading it. The
+     * read is not recorded in any way, see {@link #getCached(Object)}.
+     *
+     * @param item
+     *            identifier of the rated item
+     * @return the cached rating or <code>null</code> if not cached
+     */
+    public Double getIfPresent(K item) {
+        Entry entry = entries.get(item);
+        return entry != null ? entry.rating.get().value : null;
+    }
+
+    /**
+     * Sets the rating of the given item as the value of the given
+     * {@link RatingStars}, loading it if it is not cached.
+     *
+     * @param ratingStars
+     *            component to update
+     * @param item
+     *            identifier of the rated item
+     */
+    public void setValue(RatingStars ratingStars, K item) {
+        ratingStars.setValue(get(item));
+    }
+
+    /**
+     * Stores the given rating, e.g. after the application has written a new
+     * vote to the rating store.
+     *
+     * @param item
+     *            identifier of the rated item
+     * @param rating
+     *            the current rating of the item
+     */
+    public void put(K item, double rating) {
+        // Supersede a load in progress, see load(Object).
+        loading.remove(item);
+        long now = System.nanoTime();
+        // Update atomically on the key, so that an entry evicted or
+        // invalidated concurrently can't swallow the new rating.
+        entries.compute(item, (key, entry) -> {
+            if (entry == null) {
+                return new Entry(rating, now);
+            }
+            entry.rating.set(new Rating(rating, now));
+            return entry;
+        });
+        if (entries.size() > maximumSize) {
+            evict();
+        }
+    }
+
+    /**
+     * Discards the cached rating of the given item.
+     *
+     * @param item
+     *            identifier of the rated item
+     */
+    public void invalidate(K item) {
+        // Supersede a load in progress before removing the entry, see
+        // load(Object).
+        loading.remove(item);
+        entries.remove(item);
+    }
+
+    /**
+     * Discards all cached ratings.
+     */
+    public void invalidateAll() {
+        loading.clear();
+        entries.clear();
+    }
+
+    /**
+     * @return the maximum number of cached ratings
+     */
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * @return the current number of cached ratings
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return a snapshot of the statistics of this cache
+     */
+    public Stats getStats() {
+        return new Stats(hitCount.sum(), missCount.sum(), loadCount.sum(), loadFailureCount.sum(), refreshCount.sum(),
+                evictionCount.sum());
+    }
+
+    private double load(K item) {
+        CompletableFuture<Double> future = new CompletableFuture<>();
+        CompletableFuture<Double> pending = loading.putIfAbsent(item, future);
+        if (pending != null) {
+            return join(pending);
+        }
+        try {
+            // Another thread may have finished loading just before we
+            // registered our future.
+            Entry entry = entries.get(item);
+            double rating;
+            if (entry != null) {
+                rating = entry.rating.get().value;
+            } else {
+                loadCount.increment();
+                double loaded = loader.load(item);
+                rating = loaded;
+                // Store only if our future is still registered, i.e. the
+                // load hasn't been superseded by put() or invalidate(). As
+                // those remove the future before touching the entry, doing
+                // the check and the store atomically on the key is enough.
+                loading.computeIfPresent(item, (key, registered) -> {
+                    if (registered == future) {
+                        store(item, loaded);
+                    }
+                    return registered;
+                });
+            }
+            future.complete(rating);
+            return rating;
+        } catch (Throwable e) {
+            // Errors too, otherwise the threads waiting for this load would
+            // block forever.
+            loadFailureCount.increment();
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(item, future);
+        }
+    }
+
+    private static double join(CompletableFuture<Double> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void refresh(K item, Entry entry, Rating stale) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return; // Already being refreshed.
+        }
+        refreshCount.increment();
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    // Discarded if put() has stored a newer rating meanwhile.
+                    // After invalidate() the entry is no longer reachable.
+                    entry.rating.compareAndSet(stale, new Rating(loader.load(item), System.nanoTime()));
+                } catch (RuntimeException e) {
+                    // Keep serving the stale rating and retry on next read.
+                    loadFailureCount.increment();
+                } finally {
+                    entry.refreshing.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Rejected by the executor.
+            entry.refreshing.set(false);
+        }
+    }
+
+    private void store(K item, double rating) {
+        entries.put(item, new Entry(rating, System.nanoTime()));
+        if (entries.size() > maximumSize) {
+            evict();
+        }
+    }
+
+    /**
+     * Trims the cache below its maximum size by removing the entries with the
+     * lowest access frequency. Trimming a bit further than strictly needed
+     * amortizes the cost of the scan over many inserts. All frequencies are
+     * halved on the way so that formerly popular items eventually age out.
+     */
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return; // Another thread is already evicting.
+        }
+        try {
+            int excess = entries.size() - (int) (maximumSize * EVICTION_TARGET);
+            if (excess <= 0) {
+                return;
+            }
+            List<Map.Entry<K, Entry>> candidates = new ArrayList<>(entries.size());
+            for (Map.Entry<K, Entry> candidate : entries.entrySet()) {
+                candidate.getValue().frequencySnapshot = candidate.getValue().age();
+                candidates.add(candidate);
+            }
+            candidates.sort((a, b) -> Integer.compare(a.getValue().frequencySnapshot,
+                    b.getValue().frequencySnapshot));
+            for (int i = 0; i < excess && i < candidates.size(); i++) {
+                Map.Entry<K, Entry> victim = candidates.get(i);
+                if (entries.remove(victim.getKey(), victim.getValue())) {
+                    evictionCount.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private final class Entry {
+        private final AtomicInteger frequency = new AtomicInteger(1);
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private final AtomicReference<Rating> rating;
+        /** Frequency captured for sorting, only accessed while evicting. */
+        private int frequencySnapshot;
+
+        Entry(double value, long loadedAt) {
+            this.rating = new AtomicReference<>(new Rating(value, loadedAt));
+        }
+
+        void recordAccess() {
+            // Saturate instead of overflowing on very hot items.
+            if (frequency.get() < Integer.MAX_VALUE) {
+                frequency.incrementAndGet();
+            }
+        }
+
+        /**
+         * Halves the access frequency and returns the value before halving.
+         */
+        int age() {
+            int current;
+            do {
+                current = frequency.get();
+            } while (!frequency.compareAndSet(current, current >> 1));
+            return current;
+        }
+
+    }
+
+    /**
+     * Immutable rating of an entry, replaced as a whole so that a refresh can
+     * detect a concurrent {@link RatingCache#put(Object, double)}.
+     */
+    private final class Rating {
+        private final double value;
+        private final long loadedAt;
+
+        Rating(double value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+
+        boolean needsRefresh(long now) {
+            return refreshAfterNanos > 0 && now - loadedAt >= refreshAfterNanos;
+        }
+    }
+
+    /**
+     * Immutable snapshot of the statistics of a {@link RatingCache}.
+     */
+    public static final class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final long loadCount;
+        private final long loadFailureCount;
+        private final long refreshCount;
+        private final long evictionCount;
+
+        Stats(long hitCount, long missCount, long loadCount, long loadFailureCount, long refreshCount,
+                long evictionCount) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.loadCount = loadCount;
+            this.loadFailureCount = loadFailureCount;
+            this.refreshCount = refreshCount;
+            this.evictionCount = evictionCount;
+        }
+
+        /**
+         * @return number of reads served from the cache
+         */
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        /**
+         * @return number of reads that had to wait for a load
+         */
+        public long getMissCount() {
+            return missCount;
+        }
+
+        /**
+         * @return ratio of hits to all reads, or 1.0 if nothing has been read
+         */
+        public double getHitRate() {
+            long requests = hitCount + missCount;
+            return requests == 0 ? 1.0 : (double) hitCount / requests;
+        }
+
+        /**
+         * @return number of loads issued to the {@link RatingLoader} on a miss
+         */
+        public long getLoadCount() {
+            return loadCount;
+        }
+
+        /**
+         * @return number of loads and refreshes that threw an exception
+         */
+        public long getLoadFailureCount() {
+            return loadFailureCount;
+        }
+
+        /**
+         * @return number of background refreshes started
+         */
+        public long getRefreshCount() {
+            return refreshCount;
+        }
+
+        /**
+         * @return number of entries evicted because of the size limit
+         */
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats[hits=" + hitCount + ", misses=" + missCount + ", loads=" + loadCount + ", loadFailures="
+                    + loadFailureCount + ", refreshes=" + refreshCount + ", evictions=" + evictionCount + "]";
+        }
+    }
+
+}
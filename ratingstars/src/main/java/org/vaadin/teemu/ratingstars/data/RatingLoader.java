@@ -0,0 +1,26 @@
+package org.vaadin.teemu.ratingstars.data;
+
+import java.io.Serializable;
+
+/**
+ * Loads the rating of a single item from the backing rating store. Used by
+ * {@link RatingCache} to populate and refresh its entries.
+ *
+ * @param <K>
+ *            type of the item identifier
+ * @see RatingCache
+ */
+@FunctionalInterface
+public interface RatingLoader<K> extends Serializable {
+
+    /**
+     * Loads the current rating (e.g. the average of all votes) of the given
+     * item. Implementations may be called concurrently for different items.
+     *
+     * @param item
+     *            identifier of the rated item, never <code>null</code>
+     * @return the rating of the item
+     */
+    double load(K item);
+
+}
@@ -0,0 +1,30 @@
+package org.vaadin.teemu.ratingstars.gwt.client;
+
+import com.google.gwt.animation.client.Animation;
+import com.google.gwt.dom.client.Element;
+
+/**
+ * Animates the width changes of the bar of {@link RatingStarsWidget}.
+ *
+ * @see BarRenderer
+ */
+public class AnimatedBarRenderer extends BarRenderer {
+
+    private static final int ANIMATION_DURATION_IN_MS = 150;
+
+    @Override
+    public void setWidth(final Element barDiv, final byte fromPercentage, final byte toPercentage, final boolean animated) {
+        if (!animated) {
+            BarRenderer.applyWidth(barDiv, toPercentage);
+            return;
+        }
+
+        final Animation animation = new Animation() {
+            @Override
+            protected void onUpdate(final double progress) {
+                BarRenderer.applyWidth(barDiv, (byte) (fromPercentage + (progress * (toPercentage - fromPercentage))));
+            }
+        };
+        animation.run(AnimatedBarRenderer.ANIMATION_DURATION_IN_MS);
+    }
+}
@@ -0,0 +1,25 @@
+package org.vaadin.teemu.ratingstars.gwt.client;
+
+import com.google.gwt.event.dom.client.KeyCodes;
+import com.google.gwt.user.client.Event;
+
+/**
+ * Navigates the stars with the left and right arrow keys and selects the focused star with enter.
+ *
+ * @see KeyboardSupport
+ */
+public class ArrowKeyboardSupport extends KeyboardSupport {
+
+    @Override
+    public void onKeyUp(final RatingStarsWidget widget, final Event event) {
+        if (event.getKeyCode() == KeyCodes.KEY_RIGHT) {
+            widget.changeFocusIndex(+1);
+        }
+        else if (event.getKeyCode() == KeyCodes.KEY_LEFT) {
+            widget.changeFocusIndex(-1);
+        }
+        else if (event.getKeyCode() == KeyCodes.KEY_ENTER) {
+            widget.selectFocused();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.vaadin.teemu.ratingstars.gwt.client;
+
+import com.google.gwt.dom.client.Element;
+
+/**
+ * Sets the width of the bar of {@link RatingStarsWidget} instantly. Replaced by {@link AnimatedBarRenderer} via deferred binding unless the
+ * {@code ratingstars.animation} property is set to {@code disabled}, in which case no animation code is compiled into the widgetset.
+ */
+public class BarRenderer {
+
+    /**
+     * Changes the width of the given bar element.
+     *
+     * @param barDiv the bar element.
+     * @param fromPercentage the current width percentage (0..100).
+     * @param toPercentage the new width percentage (0..100).
+     * @param animated whether the transition should be animated if supported.
+     */
+    public void setWidth(final Element barDiv, final byte fromPercentage, final byte toPercentage, final boolean animated) {
+        BarRenderer.applyWidth(barDiv, toPercentage);
+    }
+
+    protected static void applyWidth(final Element barDiv, final byte widthPercentage) {
+        barDiv.getStyle()
+            .setProperty("width", widthPercentage + "%");
+    }
+}
@@ -0,0 +1,16 @@
+package org.vaadin.teemu.ratingstars.gwt.client;
+
+import com.google.gwt.user.client.Event;
+
+/**
+ * Handles the keyboard events of {@link RatingStarsWidget}. This base class ignores them and is replaced by {@link ArrowKeyboardSupport} via
+ * deferred binding unless the {@code ratingstars.keyboard} property is set to {@code disabled}.
+ */
+public class KeyboardSupport {
+
+    /**
+     * Handles a key up event of the given widget.
+     */
+    public void onKeyUp(final RatingStarsWidget widget, final Event event) {
+    }
+}
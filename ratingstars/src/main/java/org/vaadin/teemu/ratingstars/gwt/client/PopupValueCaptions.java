@@ -0,0 +1,29 @@
+package org.vaadin.teemu.ratingstars.gwt.client;
+
+import com.google.gwt.dom.client.Element;
+
+/**
+ * Displays the captions of the star values in a popup below the star using {@link StarCaptionUtil}.
+ *
+ * @see ValueCaptions
+ */
+public class PopupValueCaptions extends ValueCaptions {
+
+    @Override
+    public void show(final Element starElement, final String caption) {
+        StarCaptionUtil.showAroundElement(starElement, caption);
+    }
+
+    @Override
+    public void update(final Element starElement, final String caption) {
+        if (StarCaptionUtil.isVisibleForStarElement(starElement)) {
+            // update currently visible caption
+            StarCaptionUtil.showAroundElement(starElement, caption);
+        }
+    }
+
+    @Override
+    public void hide() {
+        StarCaptionUtil.hide();
+    }
+}
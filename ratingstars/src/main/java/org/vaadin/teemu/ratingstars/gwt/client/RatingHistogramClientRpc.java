@@ -0,0 +1,18 @@
+package org.vaadin.teemu.ratingstars.gwt.client;
+
+import com.vaadin.shared.communication.ClientRpc;
+
+public interface RatingHistogramClientRpc extends ClientRpc {
+
+    /**
+     * Called by the server to update only the changed counts of the
+     * {@link RatingHistogramWidget}.
+     * 
+     * @param starValues
+     *            the star values (1..maxValue) whose count has changed
+     * @param counts
+     *            the new counts in the same order as <code>starValues</code>
+     */
+    void updateCounts(int[] starValues, long[] counts);
+
+}
@@ -0,0 +1,51 @@
+package org.vaadin.teemu.ratingstars.gwt.client;
+
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.user.client.ui.Widget;
+import com.vaadin.client.communication.StateChangeEvent;
+import com.vaadin.client.ui.AbstractComponentConnector;
+import com.vaadin.shared.ui.Connect;
+import org.vaadin.teemu.ratingstars.RatingHistogram;
+
+@Connect(RatingHistogram.class)
+public class RatingHistogramConnector extends AbstractComponentConnector {
+
+    private static final long serialVersionUID = 1856404371549462447L;
+
+    @Override
+    protected void init() {
+        super.init();
+        registerRpc(RatingHistogramClientRpc.class, new RatingHistogramClientRpc() {
+            private static final long serialVersionUID = 3290150442355315618L;
+
+            @Override
+            public void updateCounts(int[] starValues, long[] counts) {
+                getWidget().updateCounts(starValues, counts);
+            }
+        });
+    }
+
+    @Override
+    protected Widget createWidget() {
+        return GWT.create(RatingHistogramWidget.class);
+    }
+
+    @Override
+    public RatingHistogramWidget getWidget() {
+        return (RatingHistogramWidget) super.getWidget();
+    }
+
+    @Override
+    public RatingHistogramState getState() {
+        return (RatingHistogramState) super.getState();
+    }
+
+    @Override
+    public void onStateChanged(StateChangeEvent stateChangeEvent) {
+        super.onStateChanged(stateChangeEvent);
+
+        if (stateChangeEvent.hasPropertyChanged("counts")) {
+            getWidget().setCounts(getState().counts);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.vaadin.teemu.ratingstars.gwt.client;
+
+import com.vaadin.shared.AbstractComponentState;
+
+public class RatingHistogramState extends AbstractComponentState {
+    private static final long serialVersionUID = -4425914862131949036L;
+
+    /** Number of votes per star value, index 0 holding the count of 1 star. */
+    public long[] counts = new long[0];
+
+}
@@ -0,0 +1,121 @@
+package org.vaadin.teemu.ratingstars.gwt.client;
+
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.user.client.ui.Widget;
+
+/**
+ * RatingHistogramWidget is the client-side implementation of the RatingHistogram component.
+ *
+ * The DOM tree for this component is constructed as follows, with one row per star value starting from the highest value:
+ *
+ * <pre>
+ *    div.v-ratinghistogram
+ *        div.v-ratinghistogram-row
+ *            span.v-ratinghistogram-label
+ *            div.v-ratinghistogram-track
+ *                div.v-ratingstars-bar
+ *            span.v-ratinghistogram-count
+ *        ...
+ * </pre>
+ *
+ * The bars reuse the {@code .v-ratingstars-bar} style of {@link RatingStarsWidget} and their width is relative to the highest count.
+ */
+public class RatingHistogramWidget extends Widget {
+
+    /** Set the CSS class names to allow styling. */
+    public static final String CLASSNAME = "v-ratinghistogram";
+    public static final String ROW_CLASSNAME = RatingHistogramWidget.CLASSNAME + "-row";
+    public static final String LABEL_CLASSNAME = RatingHistogramWidget.CLASSNAME + "-label";
+    public static final String TRACK_CLASSNAME = RatingHistogramWidget.CLASSNAME + "-track";
+    public static final String COUNT_CLASSNAME = RatingHistogramWidget.CLASSNAME + "-count";
+
+    // DOM elements, index 0 holding the row of 1 star
+    private Element[] barElements = new Element[0];
+    private Element[] countElements = new Element[0];
+
+    private long[] counts = new long[0];
+
+    public RatingHistogramWidget() {
+        setElement(Document.get()
+            .createDivElement());
+        setStyleName(RatingHistogramWidget.CLASSNAME);
+    }
+
+    /**
+     * Replaces all counts, recreating the rows if the number of star values has changed.
+     *
+     * @param counts number of votes per star value, index 0 holding the count of 1 star.
+     */
+    public void setCounts(final long[] counts) {
+        if (counts.length != this.counts.length) {
+            initDom(counts.length);
+        }
+        this.counts = new long[counts.length];
+        System.arraycopy(counts, 0, this.counts, 0, counts.length);
+        updateBars();
+    }
+
+    /**
+     * Updates the counts of the given star values.
+     *
+     * @param starValues star values (1..maxValue) to update.
+     * @param counts new counts in the same order as <code>starValues</code>.
+     */
+    public void updateCounts(final int[] starValues, final long[] counts) {
+        for (int i = 0; i < starValues.length; i++) {
+            final int index = starValues[i] - 1;
+            if (index >= 0 && index < this.counts.length) {
+                this.counts[index] = counts[i];
+            }
+        }
+        updateBars();
+    }
+
+    private void initDom(final int maxValue) {
+        getElement().removeAllChildren();
+
+        this.barElements = new Element[maxValue];
+        this.countElements = new Element[maxValue];
+        for (int i = maxValue - 1; i >= 0; i--) {
+            final Element row = createElement("div", RatingHistogramWidget.ROW_CLASSNAME);
+
+            final Element label = createElement("span", RatingHistogramWidget.LABEL_CLASSNAME);
+            label.setInnerText(String.valueOf(i + 1));
+            row.appendChild(label);
+
+            final Element track = createElement("div", RatingHistogramWidget.TRACK_CLASSNAME);
+            this.barElements[i] = createElement("div", RatingStarsWidget.BAR_CLASSNAME);
+            track.appendChild(this.barElements[i]);
+            row.appendChild(track);
+
+            this.countElements[i] = createElement("span", RatingHistogramWidget.COUNT_CLASSNAME);
+            row.appendChild(this.countElements[i]);
+
+            getElement().appendChild(row);
+        }
+    }
+
+    private static Element createElement(final String tagName, final String className) {
+        final Element element = Document.get()
+            .createElement(tagName);
+        element.setClassName(className);
+        return element;
+    }
+
+    /**
+     * Sets the width of every bar relative to the highest count, since a single changed count may change the scale.
+     */
+    private void updateBars() {
+        long highest = 0;
+        for (final long count : this.counts) {
+            highest = Math.max(highest, count);
+        }
+        for (int i = 0; i < this.counts.length; i++) {
+            final int widthPercentage = highest == 0 ? 0 : (int) (this.counts[i] * 100 / highest);
+            this.barElements[i].getStyle()
+                .setProperty("width", widthPercentage + "%");
+            this.countElements[i].setInnerText(String.valueOf(this.counts[i]));
+        }
+    }
+}
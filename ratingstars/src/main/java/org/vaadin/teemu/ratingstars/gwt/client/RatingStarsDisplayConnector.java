@@ -0,0 +1,28 @@
+package org.vaadin.teemu.ratingstars.gwt.client;
+
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.user.client.ui.Widget;
+import com.vaadin.client.ui.AbstractComponentConnector;
+import com.vaadin.shared.ui.Connect;
+import org.vaadin.teemu.ratingstars.RatingStarsDisplay;
+
+@Connect(RatingStarsDisplay.class)
+public class RatingStarsDisplayConnector extends AbstractComponentConnector {
+
+    private static final long serialVersionUID = -1009256001543297307L;
+
+    @Override
+    protected Widget createWidget() {
+        return GWT.create(RatingStarsDisplayWidget.class);
+    }
+
+    @Override
+    public RatingStarsDisplayWidget getWidget() {
+        return (RatingStarsDisplayWidget) super.getWidget();
+    }
+
+    @Override
+    public RatingStarsDisplayState getState() {
+        return (RatingStarsDisplayState) super.getState();
+    }
+}
@@ -0,0 +1,21 @@
+package org.vaadin.teemu.ratingstars.gwt.client;
+
+import com.vaadin.shared.AbstractComponentState;
+import com.vaadin.shared.annotations.DelegateToWidget;
+
+public class RatingStarsDisplayState extends AbstractComponentState {
+    private static final long serialVersionUID = -1377045526958766411L;
+
+    {
+        // Styles the component as read-only (v-readonly) like a read-only
+        // RatingStars.
+        readOnly = true;
+    }
+
+    @DelegateToWidget("setMaxValue")
+    public int maxValue = 5;
+
+    @DelegateToWidget("setValue")
+    public double value;
+
+}
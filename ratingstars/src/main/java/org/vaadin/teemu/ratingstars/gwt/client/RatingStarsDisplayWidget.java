@@ -0,0 +1,69 @@
+package org.vaadin.teemu.ratingstars.gwt.client;
+
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.user.client.ui.Widget;
+
+/**
+ * RatingStarsDisplayWidget is a lightweight, display-only variant of {@link RatingStarsWidget}. It builds the same DOM tree, so it is styled by the
+ * same theme, but has no focus handling, keyboard navigation, animations, value captions or events. Applications that only display
+ * ratings can use it together with disabling the optional features of {@link RatingStarsWidget}, which then compiles them out of the
+ * widgetset.
+ */
+public class RatingStarsDisplayWidget extends Widget {
+
+    private Element element;
+    private Element barDiv;
+
+    private int maxValue = 5;
+    private double value;
+
+    public RatingStarsDisplayWidget() {
+        setElement(Document.get()
+            .createDivElement());
+        setStyleName(RatingStarsWidget.WRAPPER_CLASSNAME);
+        initDom();
+    }
+
+    private void initDom() {
+        if (this.element != null) {
+            // Remove previous element.
+            getElement().removeChild(this.element);
+        }
+
+        this.element = Document.get()
+            .createDivElement();
+        this.element.setClassName(RatingStarsWidget.CLASSNAME);
+        for (int i = 0; i < this.maxValue; i++) {
+            final Element starDiv = Document.get()
+                .createDivElement();
+            starDiv.setClassName(RatingStarsWidget.STAR_CLASSNAME);
+            this.element.appendChild(starDiv);
+        }
+
+        this.barDiv = Document.get()
+            .createDivElement();
+        this.barDiv.setClassName(RatingStarsWidget.BAR_CLASSNAME);
+        this.element.appendChild(this.barDiv);
+        getElement().appendChild(this.element);
+
+        updateBarWidth();
+    }
+
+    private void updateBarWidth() {
+        this.barDiv.getStyle()
+            .setProperty("width", (int) (this.value * 100 / this.maxValue) + "%");
+    }
+
+    public void setMaxValue(final int maxValue) {
+        if (this.maxValue != maxValue) {
+            this.maxValue = maxValue;
+            initDom(); // Recreate the DOM.
+        }
+    }
+
+    public void setValue(final double value) {
+        this.value = value;
+        updateBarWidth();
+    }
+}
@@ -1,14 +1,45 @@
 package org.vaadin.teemu.ratingstars.gwt.client;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import com.google.gwt.core.shared.GwtIncompatible;
 import com.vaadin.shared.AbstractFieldState;
 import com.vaadin.shared.annotations.DelegateToWidget;
 
 public class RatingStarsState extends AbstractFieldState {
     private static final long serialVersionUID = 3623150608620619618L;
 
+    /**
+     * The fields are written by {@link #writeObject(ObjectOutputStream)} in a
+     * compact form instead of the default serialization.
+     */
+    @GwtIncompatible
+    private static final ObjectStreamField[] serialPersistentFields = {};
+
+    /** Upper bound for the number of distinct caption maps in {@link #CAPTION_POOL}. */
+    @GwtIncompatible
+    private static final int MAX_POOLED_CAPTIONS = 256;
+
+    /**
+     * Pool of immutable copies of serialized caption maps. States with equal
+     * captions write the same pooled instance, which Java serialization then
+     * writes only once per stream. Only maps that are actually serialized end
+     * up here; when the pool is full it is cleared and refilled.
+     */
+    @GwtIncompatible
+    private static final Map<Map<Integer, String>, Map<Integer, String>> CAPTION_POOL = new ConcurrentHashMap<>();
+
+    /**
+     * Captions by rating value. Every state has a mutable map of its own, also
+     * after deserialization.
+     */
     public Map<Integer, String> valueCaptions = new HashMap<>();
 
     @DelegateToWidget("setAnimationEnabled")
@@ -20,4 +51,48 @@ public class RatingStarsState extends AbstractFieldState {
     @DelegateToWidget("setValue")
     public Double value;
 
+    /**
+     * Writes the value as a primitive and the captions as a pooled map, so
+     * equal captions of several states are written only once per stream.
+     */
+    @GwtIncompatible
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(maxValue);
+        out.writeBoolean(animated);
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeDouble(value);
+        }
+        out.writeObject(pooled(valueCaptions));
+    }
+
+    @GwtIncompatible
+    private static Map<Integer, String> pooled(Map<Integer, String> captions) {
+        Map<Integer, String> shared = CAPTION_POOL.get(captions);
+        if (shared == null) {
+            if (CAPTION_POOL.size() >= MAX_POOLED_CAPTIONS) {
+                CAPTION_POOL.clear();
+            }
+            shared = Collections.unmodifiableMap(new HashMap<>(captions));
+            Map<Integer, String> previous = CAPTION_POOL.putIfAbsent(shared, shared);
+            if (previous != null) {
+                shared = previous;
+            }
+        }
+        return shared;
+    }
+
+    @GwtIncompatible
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        maxValue = in.readInt();
+        animated = in.readBoolean();
+        value = in.readBoolean() ? in.readDouble() : null;
+        // A mutable copy of its own, the pooled map is only shared within
+        // the stream.
+        valueCaptions = new HashMap<>((Map<Integer, String>) in.readObject());
+    }
+
 }
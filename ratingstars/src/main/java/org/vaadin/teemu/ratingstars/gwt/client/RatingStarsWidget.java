@@ -2,11 +2,10 @@ package org.vaadin.teemu.ratingstars.gwt.client;
 
 import java.util.Map;
 
-import com.google.gwt.animation.client.Animation;
+import com.google.gwt.core.client.GWT;
 import com.google.gwt.dom.client.DivElement;
 import com.google.gwt.dom.client.Document;
 import com.google.gwt.dom.client.Element;
-import com.google.gwt.event.dom.client.KeyCodes;
 import com.google.gwt.event.logical.shared.HasValueChangeHandlers;
 import com.google.gwt.event.logical.shared.ValueChangeEvent;
 import com.google.gwt.event.logical.shared.ValueChangeHandler;
@@ -36,6 +35,10 @@ import com.google.gwt.user.client.ui.HasValue;
  * The idea behind the DOM tree is that {@code .v-ratingstars-star} elements always have a partially transparent background image and the width of the
  * {@code .v-ratingstars-bar} element behind these star elements is changed according to the current value.
  *
+ * Animations, value captions and keyboard navigation are provided by {@link BarRenderer}, {@link ValueCaptions} and {@link KeyboardSupport}.
+ * Each of them can be compiled out of the widgetset by setting the {@code ratingstars.animation}, {@code ratingstars.captions} or
+ * {@code ratingstars.keyboard} property to {@code disabled}, see {@code RatingStarsWidgetset.gwt.xml}.
+ *
  * @author Teemu Pöntelin
  */
 public class RatingStarsWidget extends FocusWidget implements HasAnimation, HasValue<Double>, HasValueChangeHandlers<Double> {
@@ -46,7 +49,10 @@ public class RatingStarsWidget extends FocusWidget implements HasAnimation, HasV
     public static final String BAR_CLASSNAME = RatingStarsWidget.CLASSNAME + "-bar";
     public static final String WRAPPER_CLASSNAME = RatingStarsWidget.CLASSNAME + "-wrapper";
 
-    private static final int ANIMATION_DURATION_IN_MS = 150;
+    // Optional features, replaced via deferred binding
+    private final BarRenderer barRenderer = GWT.create(BarRenderer.class);
+    private final ValueCaptions valueCaptions = GWT.create(ValueCaptions.class);
+    private final KeyboardSupport keyboardSupport = GWT.create(KeyboardSupport.class);
 
     // DOM elements
     private Element barDiv;
@@ -94,11 +100,7 @@ public class RatingStarsWidget extends FocusWidget implements HasAnimation, HasV
             final String caption = valueCaptions.get(rating);
             if (caption != null) {
                 starElement.setPropertyString("caption", caption);
-
-                if (StarCaptionUtil.isVisibleForStarElement(starElement)) {
-                    // update currently visible caption
-                    StarCaptionUtil.showAroundElement(starElement, caption);
-                }
+                this.valueCaptions.update(starElement, caption);
             }
         }
     }
@@ -133,13 +135,13 @@ public class RatingStarsWidget extends FocusWidget implements HasAnimation, HasV
                     final int rating = target.getPropertyInt("rating");
                     setFocusIndex(rating - 1);
                     setFocus(true);
-                    StarCaptionUtil.showAroundElement(target, target.getPropertyString("caption"));
+                    this.valueCaptions.show(target, target.getPropertyString("caption"));
                 }
                 break;
             case Event.ONMOUSEOUT:
                 setBarWidth(calcBarWidth(this.value));
                 setFocusIndex(-1);
-                StarCaptionUtil.hide();
+                this.valueCaptions.hide();
                 break;
             case Event.ONFOCUS:
                 getElement().addClassName(RatingStarsWidget.WRAPPER_CLASSNAME + "-focus");
@@ -158,7 +160,7 @@ public class RatingStarsWidget extends FocusWidget implements HasAnimation, HasV
                 getElement().removeClassName(RatingStarsWidget.WRAPPER_CLASSNAME + "-focus");
                 setFocusIndex(-1);
                 setBarWidth(calcBarWidth(this.value));
-                StarCaptionUtil.hide();
+                this.valueCaptions.hide();
                 break;
             case Event.ONKEYUP:
                 handleKeyUp(event);
@@ -178,11 +180,11 @@ public class RatingStarsWidget extends FocusWidget implements HasAnimation, HasV
 
             focusedStar.addClassName(RatingStarsWidget.STAR_CLASSNAME + "-focus");
             setBarWidth(calcBarWidth(focusedStar.getPropertyInt("rating")));
-            StarCaptionUtil.showAroundElement(focusedStar, focusedStar.getPropertyString("caption"));
+            this.valueCaptions.show(focusedStar, focusedStar.getPropertyString("caption"));
         }
     }
 
-    private void changeFocusIndex(final int delta) {
+    void changeFocusIndex(final int delta) {
         final int newFocusIndex = this.focusIndex + delta;
 
         // check for boundaries
@@ -199,18 +201,19 @@ public class RatingStarsWidget extends FocusWidget implements HasAnimation, HasV
         }
     }
 
-    public void handleKeyUp(final Event event) {
-        if (event.getKeyCode() == KeyCodes.KEY_RIGHT) {
-            changeFocusIndex(+1);
-        }
-        else if (event.getKeyCode() == KeyCodes.KEY_LEFT) {
-            changeFocusIndex(-1);
-        }
-        else if (event.getKeyCode() == KeyCodes.KEY_ENTER) {
+    /**
+     * Selects the value of the currently focused star, if any.
+     */
+    void selectFocused() {
+        if (this.focusIndex >= 0 && this.focusIndex < this.starElements.length) {
             setValueFromElement(this.starElements[this.focusIndex]);
         }
     }
 
+    public void handleKeyUp(final Event event) {
+        this.keyboardSupport.onKeyUp(this, event);
+    }
+
     /**
      * Creates the DivElement of the bar representing the current value.
      *
@@ -227,7 +230,8 @@ public class RatingStarsWidget extends FocusWidget implements HasAnimation, HasV
     }
 
     /**
-     * Sets the width of the bar div instantly or via animated progress depending on the value of the <code>animated</code> property.
+     * Sets the width of the bar div instantly or via animated progress depending on the value of the <code>animated</code> property and on
+     * whether animations are compiled in.
      */
     private void setBarWidth(final byte widthPercentage) {
         if (this.barDiv == null) {
@@ -236,21 +240,7 @@ public class RatingStarsWidget extends FocusWidget implements HasAnimation, HasV
 
         final byte currentWidthPercentage = getCurrentBarWidth();
         if (currentWidthPercentage != widthPercentage) {
-            if (!isAnimationEnabled()) {
-                this.barDiv.getStyle()
-                    .setProperty("width", widthPercentage + "%");
-            }
-            else {
-                final Animation animation = new Animation() {
-                    @Override
-                    protected void onUpdate(final double progress) {
-                        final byte newWidth = (byte) (currentWidthPercentage + (progress * (widthPercentage - currentWidthPercentage)));
-                        RatingStarsWidget.this.barDiv.getStyle()
-                            .setProperty("width", newWidth + "%");
-                    }
-                };
-                animation.run(RatingStarsWidget.ANIMATION_DURATION_IN_MS);
-            }
+            this.barRenderer.setWidth(this.barDiv, currentWidthPercentage, widthPercentage, isAnimationEnabled());
         }
     }
 
@@ -0,0 +1,29 @@
+package org.vaadin.teemu.ratingstars.gwt.client;
+
+import com.google.gwt.dom.client.Element;
+
+/**
+ * Displays the captions of the star values of {@link RatingStarsWidget}. This base class displays nothing and is replaced by
+ * {@link PopupValueCaptions} via deferred binding unless the {@code ratingstars.captions} property is set to {@code disabled}, in which case
+ * {@link StarCaptionUtil} is not compiled into the widgetset.
+ */
+public class ValueCaptions {
+
+    /**
+     * Shows the given caption around the given star element, or hides the caption if it is <code>null</code>.
+     */
+    public void show(final Element starElement, final String caption) {
+    }
+
+    /**
+     * Updates the caption if it is currently shown for the given star element.
+     */
+    public void update(final Element starElement, final String caption) {
+    }
+
+    /**
+     * Hides the caption.
+     */
+    public void hide() {
+    }
+}
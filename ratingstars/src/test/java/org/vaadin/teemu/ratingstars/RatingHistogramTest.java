@@ -0,0 +1,109 @@
+package org.vaadin.teemu.ratingstars;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import com.vaadin.server.ClientMethodInvocation;
+import com.vaadin.server.JsonCodec;
+import com.vaadin.server.JsonCodec.EncodeResult;
+import elemental.json.JsonObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.vaadin.teemu.ratingstars.gwt.client.RatingHistogramState;
+
+public class RatingHistogramTest {
+
+    /**
+     * Acts as attached without a session, so the RPC calls are queued but
+     * nothing else is needed from the framework.
+     */
+    private static class AttachedRatingHistogram extends RatingHistogram {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public boolean isAttached() {
+            return true;
+        }
+    }
+
+    private RatingHistogram histogram;
+
+    /** Encoded state of the last response. */
+    private JsonObject sentState;
+
+    @Before
+    public void setUp() {
+        histogram = new AttachedRatingHistogram();
+        histogram.setCounts(1, 2, 3, 4, 5);
+        respond(true);
+    }
+
+    @Test
+    public void initialResponseContainsAllCounts() {
+        assertEquals(5, sentState.getArray("counts").length());
+        assertEquals(5, (long) sentState.getArray("counts").getNumber(4));
+        assertTrue(histogram.retrievePendingRpcCalls().isEmpty());
+    }
+
+    @Test
+    public void setCountDoesNotChangeEncodedState() {
+        histogram.setCount(3, 7);
+
+        JsonObject diff = respond(false);
+        assertFalse("Counts must not be sent in the state: " + diff.toJson(), diff.hasKey("counts"));
+
+        List<ClientMethodInvocation> calls = histogram.retrievePendingRpcCalls();
+        assertEquals(1, calls.size());
+        assertEquals("updateCounts", calls.get(0).getMethodName());
+        assertArrayEquals(new int[] { 3 }, (int[]) calls.get(0).getParameters()[0]);
+        assertArrayEquals(new long[] { 7 }, (long[]) calls.get(0).getParameters()[1]);
+        assertArrayEquals(new long[] { 1, 2, 7, 4, 5 }, histogram.getCounts());
+    }
+
+    @Test
+    public void setCountsSendsOnlyChangedCounts() {
+        histogram.setCounts(1, 2, 3, 9, 6);
+
+        assertFalse(respond(false).hasKey("counts"));
+
+        List<ClientMethodInvocation> calls = histogram.retrievePendingRpcCalls();
+        assertEquals(1, calls.size());
+        assertArrayEquals(new int[] { 4, 5 }, (int[]) calls.get(0).getParameters()[0]);
+        assertArrayEquals(new long[] { 9, 6 }, (long[]) calls.get(0).getParameters()[1]);
+    }
+
+    @Test
+    public void unchangedCountIsNotSent() {
+        histogram.setCount(2, 2);
+
+        assertTrue(histogram.retrievePendingRpcCalls().isEmpty());
+    }
+
+    @Test
+    public void maxValueChangeSendsAllCountsInState() {
+        histogram.setMaxValue(3);
+        histogram.setCount(1, 8);
+
+        JsonObject diff = respond(false);
+        assertEquals(3, diff.getArray("counts").length());
+        assertEquals(8, (long) diff.getArray("counts").getNumber(0));
+        assertTrue(histogram.retrievePendingRpcCalls().isEmpty());
+    }
+
+    /**
+     * Runs the server side of a response and returns the encoded changes of
+     * the state since the previous response.
+     */
+    private JsonObject respond(boolean initial) {
+        histogram.beforeClientResponse(initial);
+        EncodeResult result = JsonCodec.encode(histogram.getState(false), initial ? null : sentState,
+                RatingHistogramState.class, null);
+        sentState = (JsonObject) result.getEncodedValue();
+        return (JsonObject) result.getDiff();
+    }
+
+}
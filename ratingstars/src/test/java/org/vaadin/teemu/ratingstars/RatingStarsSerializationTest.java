@@ -0,0 +1,185 @@
+package org.vaadin.teemu.ratingstars;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.vaadin.shared.AbstractFieldState;
+import org.junit.Test;
+import org.vaadin.teemu.ratingstars.gwt.client.RatingStarsServerRpc;
+import org.vaadin.teemu.ratingstars.gwt.client.RatingStarsState;
+
+public class RatingStarsSerializationTest {
+
+    private static final int INSTANCES = 500;
+
+    private static final String[] CAPTIONS = { "Epic Fail", "Poor", "OK", "Good", "Excellent" };
+
+    /**
+     * The layout of {@link RatingStarsState} before the compact serialization
+     * was introduced: default serialization, a boxed value and a caption map
+     * of its own per instance.
+     */
+    public static class LegacyRatingStarsState extends AbstractFieldState {
+        private static final long serialVersionUID = 1L;
+
+        public Map<Integer, String> valueCaptions = new HashMap<>();
+        public boolean animated;
+        public int maxValue;
+        public Double value;
+    }
+
+    @Test
+    public void stateRoundTrip() throws Exception {
+        RatingStarsState state = new RatingStarsState();
+        state.maxValue = 7;
+        state.animated = true;
+        state.value = 3.5;
+        state.valueCaptions.put(2, "Poor");
+        state.readOnly = true;
+
+        RatingStarsState copy = roundTrip(state);
+
+        assertEquals(7, copy.maxValue);
+        assertTrue(copy.animated);
+        assertEquals(3.5, copy.value, 0);
+        assertEquals(state.valueCaptions, copy.valueCaptions);
+        assertTrue(copy.readOnly);
+
+        state.value = null;
+        assertNull(roundTrip(state).value);
+    }
+
+    @Test
+    public void componentRoundTrip() throws Exception {
+        RatingStars ratingStars = new RatingStars();
+        ratingStars.setMaxValue(10);
+        ratingStars.setAnimated(false);
+        ratingStars.setValue(4.5);
+        ratingStars.setValueCaption(CAPTIONS);
+
+        RatingStars copy = roundTrip(ratingStars);
+
+        assertEquals(4.5, copy.getValue(), 0);
+        assertEquals(10, copy.getState(false).maxValue);
+        assertEquals(false, copy.getState(false).animated);
+        assertEquals(ratingStars.getState(false).valueCaptions, copy.getState(false).valueCaptions);
+
+        // The RPC must still reach the deserialized instance.
+        RatingStarsServerRpc rpc = (RatingStarsServerRpc) copy.getRpcManager(RatingStarsServerRpc.class.getName())
+                .getImplementation();
+        rpc.valueChanged(2.0);
+        assertEquals(2.0, copy.getValue(), 0);
+        assertEquals(4.5, ratingStars.getValue(), 0);
+    }
+
+    @Test
+    public void sharedCaptionsAreNotModifiedThroughOtherInstances() throws Exception {
+        List<RatingStars> list = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            RatingStars ratingStars = new RatingStars();
+            ratingStars.setValueCaption(CAPTIONS);
+            list.add(ratingStars);
+        }
+
+        List<RatingStars> copy = roundTrip(new ArrayList<>(list));
+        copy.get(0).setValueCaption(1, "Your Rating");
+
+        assertEquals("Your Rating", copy.get(0).getState(false).valueCaptions.get(1));
+        assertEquals("Epic Fail", copy.get(1).getState(false).valueCaptions.get(1));
+    }
+
+    @Test
+    public void deserializedCaptionsCanBeModifiedInPlace() throws Exception {
+        List<RatingStars> list = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            RatingStars ratingStars = new RatingStars();
+            ratingStars.setValueCaption(CAPTIONS);
+            list.add(ratingStars);
+        }
+
+        List<RatingStars> copy = roundTrip(new ArrayList<>(list));
+        copy.get(0).getState().valueCaptions.put(1, "Your Rating");
+
+        assertEquals("Your Rating", copy.get(0).getState(false).valueCaptions.get(1));
+        assertEquals("Epic Fail", copy.get(1).getState(false).valueCaptions.get(1));
+
+        RatingStars ratingStars = new RatingStars();
+        ratingStars.getState().valueCaptions.put(2, "Poor");
+        assertEquals("Poor", ratingStars.getState(false).valueCaptions.get(2));
+    }
+
+    @Test
+    public void compactStateIsSmallerThanLegacyState() throws Exception {
+        ArrayList<RatingStarsState> compact = new ArrayList<>();
+        ArrayList<LegacyRatingStarsState> legacy = new ArrayList<>();
+        for (int i = 0; i < INSTANCES; i++) {
+            RatingStarsState state = new RatingStarsState();
+            LegacyRatingStarsState legacyState = new LegacyRatingStarsState();
+            state.maxValue = legacyState.maxValue = 5;
+            state.animated = legacyState.animated = true;
+            state.value = legacyState.value = i % 5 + 0.5;
+            for (int value = 1; value <= CAPTIONS.length; value++) {
+                state.valueCaptions.put(value, CAPTIONS[value - 1]);
+                legacyState.valueCaptions.put(value, CAPTIONS[value - 1]);
+            }
+            compact.add(state);
+            legacy.add(legacyState);
+        }
+
+        int compactBytes = serialize(compact).length;
+        int legacyBytes = serialize(legacy).length;
+
+        // The per-instance caption maps dominate the legacy size.
+        assertTrue("Expected at least 50 bytes less per instance, was " + compactBytes / INSTANCES + " vs "
+                + legacyBytes / INSTANCES, legacyBytes - compactBytes >= 50 * INSTANCES);
+    }
+
+    @Test
+    public void equalCaptionsAreWrittenOncePerStream() throws Exception {
+        ArrayList<RatingStars> withCaptions = new ArrayList<>();
+        ArrayList<RatingStars> withoutCaptions = new ArrayList<>();
+        for (int i = 0; i < INSTANCES; i++) {
+            RatingStars ratingStars = new RatingStars();
+            // Set one by one, as applications with localized captions do.
+            for (int value = 1; value <= CAPTIONS.length; value++) {
+                ratingStars.setValueCaption(value, new String(CAPTIONS[value - 1]));
+            }
+            withCaptions.add(ratingStars);
+            withoutCaptions.add(new RatingStars());
+        }
+
+        int captionBytesPerInstance = (serialize(withCaptions).length - serialize(withoutCaptions).length)
+                / INSTANCES;
+
+        assertTrue("Expected captions to be shared, was " + captionBytesPerInstance + " bytes per instance",
+                captionBytesPerInstance < 8);
+    }
+
+    private static byte[] serialize(Serializable object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Serializable> T roundTrip(T object) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialize(object)))) {
+            return (T) in.readObject();
+        }
+    }
+
+}
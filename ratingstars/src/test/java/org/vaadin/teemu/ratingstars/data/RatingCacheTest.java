@@ -0,0 +1,152 @@
+package org.vaadin.teemu.ratingstars.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class RatingCacheTest {
+
+    private static final int THREADS = 8;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final CountDownLatch loadStarted = new CountDownLatch(1);
+    private final CountDownLatch loadReleased = new CountDownLatch(1);
+
+    /** Loader returning the item itself as rating once released. */
+    private final RatingLoader<Integer> blockingLoader = item -> {
+        loads.incrementAndGet();
+        loadStarted.countDown();
+        await(loadReleased);
+        return item;
+    };
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentMissesShareOneLoad() throws Exception {
+        RatingCache<Integer> cache = new RatingCache<>(blockingLoader, 10);
+
+        List<Future<Double>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(() -> cache.get(3)));
+        }
+        await(loadStarted);
+        // Give the other threads time to find the load in progress.
+        Thread.sleep(50);
+        loadReleased.countDown();
+
+        for (Future<Double> result : results) {
+            assertEquals(3.0, result.get(5, TimeUnit.SECONDS), 0);
+        }
+        assertEquals(1, loads.get());
+        assertEquals(3.0, cache.getIfPresent(3), 0);
+    }
+
+    @Test
+    public void invalidateDiscardsLoadInProgress() throws Exception {
+        RatingCache<Integer> cache = new RatingCache<>(blockingLoader, 10);
+
+        Future<Double> result = executor.submit(() -> cache.get(3));
+        await(loadStarted);
+        cache.invalidate(3);
+        loadReleased.countDown();
+
+        assertEquals(3.0, result.get(5, TimeUnit.SECONDS), 0);
+        assertNull(cache.getIfPresent(3));
+    }
+
+    @Test
+    public void putSupersedesLoadInProgress() throws Exception {
+        RatingCache<Integer> cache = new RatingCache<>(blockingLoader, 10);
+
+        Future<Double> result = executor.submit(() -> cache.get(3));
+        await(loadStarted);
+        cache.put(3, 4.5);
+        loadReleased.countDown();
+
+        result.get(5, TimeUnit.SECONDS);
+        assertEquals(4.5, cache.getIfPresent(3), 0);
+    }
+
+    @Test
+    public void errorInLoaderReleasesWaitingThreads() throws Exception {
+        RatingCache<Integer> cache = new RatingCache<>(item -> {
+            loadStarted.countDown();
+            await(loadReleased);
+            throw new AssertionError("Loader failed");
+        }, 10);
+
+        List<Future<Double>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(() -> cache.get(3)));
+        }
+        await(loadStarted);
+        Thread.sleep(50);
+        loadReleased.countDown();
+
+        for (Future<Double> result : results) {
+            try {
+                result.get(5, TimeUnit.SECONDS);
+                fail("Expected the error of the loader");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof AssertionError);
+            }
+        }
+        assertNull(cache.getIfPresent(3));
+    }
+
+    @Test
+    public void sizeStaysBounded() {
+        RatingCache<Integer> cache = new RatingCache<>(item -> item, 100);
+
+        for (int item = 0; item < 1000; item++) {
+            cache.get(item);
+            cache.put(-item - 1, item);
+            assertTrue("Size " + cache.size() + " exceeds the maximum", cache.size() <= 100);
+        }
+        assertEquals(2000 - cache.size(), cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    public void frequentlyReadEntriesSurviveEviction() {
+        RatingCache<Integer> cache = new RatingCache<>(item -> item, 100);
+
+        cache.get(0);
+        for (int item = 1; item < 1000; item++) {
+            cache.getCached(0);
+            cache.get(item);
+        }
+        assertEquals(0.0, cache.getIfPresent(0), 0);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Timed out");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+}